@@ -4,49 +4,97 @@
 
 //DEPS com.fasterxml.jackson.core:jackson-databind:2.18.2
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.file.*;
 import java.util.*;
 import java.util.stream.Stream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
 public class SummarizeReports {
 
     private static final ObjectMapper MAPPER = new ObjectMapper()
             .enable(SerializationFeature.INDENT_OUTPUT);
 
+    // A newer group of runs (e.g. a new JVM build) replaces an older one in summary.json once it has this many runs
+    private static final int SUMMARY_MIN_RUNS = 2;
+
+    // All rankings are relative to this board, it has results for every benchmark
+    private static final String REFERENCE_CPU_MODEL = "Raspberry Pi 5 Model B Rev 1.0";
+
+    // The benchmarks the rankings are based on. A board needs a valid result for each of them to get a rank.
+    // Benchmarks added to data/benchmarks.json are only ranked once they are added here as well.
+    private static final List<String> RANKED_BENCHMARKS = List.of(
+            "akka-uct", "fj-kmeans", "scala-kmeans", "future-genetic", "mnemonics", "par-mnemonics", "db-shootout"
+    );
+
+    // Smallest score used when normalizing, in the unit of the results (ms)
+    private static final double MIN_SCORE = 0.001;
+
+    // Benchmarks which run the same workload serial and parallel, used for the single/multi-thread indices
+    private static final List<BenchmarkPair> SERIAL_PARALLEL_PAIRS = List.of(
+            new BenchmarkPair("scala-kmeans", "fj-kmeans"),
+            new BenchmarkPair("mnemonics", "par-mnemonics")
+    );
+
+    // Change detection: a JVM or OS update needs this many valid runs around it to be tested
+    // (at least 2 degrees of freedom, with 1 even a 15% change is rarely significant),
+    // the change must be significant and large enough to be reported
+    private static final int TREND_MIN_RUNS = 4;
+    private static final double TREND_ALPHA = 0.05;
+    private static final double TREND_MIN_CHANGE_PERCENT = 5.0;
+
     public static void main(String[] args) throws Exception {
         Path reportDir = Path.of("report");
         Path summaryFile = Path.of("data", "summary.json");
+        Path aggregatedFile = Path.of("data", "aggregated.json");
+        Path rankingsFile = Path.of("data", "rankings.json");
+        Path trendsFile = Path.of("data", "trends.json");
+        Path dashboardFile = Path.of("data", "dashboard.min.json");
 
+        // Without reports, all outputs are still written (empty) for deterministic output
+        List<ReportFile> all;
         if (!Files.isDirectory(reportDir)) {
             System.out.println("Report directory not found: " + reportDir.toAbsolutePath());
-            System.out.println("Writing empty " + summaryFile + " and exiting.");
-            writeSummary(summaryFile, List.of());
-            return;
-        }
-
-        List<BenchmarkSubmission> all = loadAllSubmissions(reportDir);
-        if (all.isEmpty()) {
-            System.out.println("No report JSON files found in " + reportDir.toAbsolutePath());
-            // Still write an empty summary for deterministic output
-            writeSummary(summaryFile, List.of());
-            return;
+            System.out.println("Writing empty data files.");
+            all = List.of();
+        } else {
+            all = loadAllSubmissions(reportDir);
+            if (all.isEmpty()) {
+                System.out.println("No report JSON files found in " + reportDir.toAbsolutePath());
+            }
         }
 
-        List<BenchmarkSubmission> unique = dedupeByCpu(all);
+        List<BoardAggregate> boards = aggregateByCpu(all);
+        List<BenchmarkSubmission> unique = boards.stream()
+                .map(SummarizeReports::toSummarySubmission)
+                .toList();
 
         writeSummary(summaryFile, unique);
+        writeJson(aggregatedFile, boards);
+        writeJson(rankingsFile, rank(unique));
+        writeJson(trendsFile, trends(all));
+        writeDashboard(dashboardFile, buildDashboard(unique));
 
         System.out.println("Loaded submissions : " + all.size());
         System.out.println("Unique CPU entries : " + unique.size());
         System.out.println("Wrote summary to   : " + summaryFile.toAbsolutePath());
+        System.out.println("Wrote aggregates to: " + aggregatedFile.toAbsolutePath());
+        System.out.println("Wrote rankings to  : " + rankingsFile.toAbsolutePath());
+        System.out.println("Wrote trends to    : " + trendsFile.toAbsolutePath());
+        System.out.println("Wrote dashboard to : " + dashboardFile.toAbsolutePath() + " (+ .gz)");
     }
 
-    private static List<BenchmarkSubmission> loadAllSubmissions(Path reportDir) throws IOException {
+    private static List<ReportFile> loadAllSubmissions(Path reportDir) throws IOException {
         try (Stream<Path> s = Files.list(reportDir)) {
             List<Path> jsonFiles = s
                     .filter(Files::isRegularFile)
@@ -54,11 +102,11 @@ public class SummarizeReports {
                     .sorted()
                     .toList();
 
-            List<BenchmarkSubmission> out = new ArrayList<>();
+            List<ReportFile> out = new ArrayList<>();
             for (Path f : jsonFiles) {
                 try {
                     BenchmarkSubmission sub = MAPPER.readValue(Files.readString(f), BenchmarkSubmission.class);
-                    out.add(sub);
+                    out.add(new ReportFile(f.toString().replace('\\', '/'), sub));
                 } catch (Exception e) {
                     System.err.println("Skipping unreadable JSON: " + f + " (" + e.getMessage() + ")");
                 }
@@ -67,11 +115,14 @@ public class SummarizeReports {
         }
     }
 
-    private static List<BenchmarkSubmission> dedupeByCpu(List<BenchmarkSubmission> submissions) {
-        Map<CpuKey, BenchmarkSubmission> best = new LinkedHashMap<>();
-
-        for (BenchmarkSubmission s : submissions) {
-            CpuInfo cpu = Optional.ofNullable(s)
+    /**
+     * Groups the submissions per CPU, in order of first appearance, with the runs of each CPU
+     * sorted from oldest to newest.
+     */
+    private static Map<CpuKey, List<ReportFile>> groupByCpu(List<ReportFile> reports) {
+        Map<CpuKey, List<ReportFile>> byCpu = new LinkedHashMap<>();
+        for (ReportFile r : reports) {
+            CpuInfo cpu = Optional.ofNullable(r.submission())
                     .map(BenchmarkSubmission::systemInfo)
                     .map(SystemInformation::cpuInfo)
                     .orElse(null);
@@ -85,27 +136,734 @@ public class SummarizeReports {
                     cpu.logicalCores(),
                     cpu.physicalCores()
             );
+            byCpu.computeIfAbsent(key, k -> new ArrayList<>()).add(r);
+        }
+
+        for (List<ReportFile> runs : byCpu.values()) {
+            runs.sort(Comparator.comparing(r -> nullToEmpty(r.submission().timestamp())));
+        }
+        return byCpu;
+    }
+
+    /**
+     * Merges all submissions of the same CPU instead of keeping only the newest one, so a single
+     * noisy or throttled run cannot replace a good one. Within a board, runs are grouped by JVM
+     * build and by the set of skipped benchmarks, and each group gets a median per benchmark.
+     */
+    private static List<BoardAggregate> aggregateByCpu(List<ReportFile> reports) {
+        Set<String> knownBenchmarks = new LinkedHashSet<>();
+        for (ReportFile r : reports) {
+            for (BenchmarkResult result : resultsOf(r.submission())) {
+                knownBenchmarks.add(result.name());
+            }
+        }
+
+        List<BoardAggregate> out = new ArrayList<>();
+        for (Map.Entry<CpuKey, List<ReportFile>> e : groupByCpu(reports).entrySet()) {
+            List<ReportFile> runs = e.getValue();
+
+            Map<GroupKey, List<ReportFile>> byGroup = new LinkedHashMap<>();
+            for (ReportFile r : runs) {
+                byGroup.computeIfAbsent(groupKey(r.submission(), knownBenchmarks), k -> new ArrayList<>()).add(r);
+            }
+
+            List<RunGroup> groups = new ArrayList<>();
+            for (Map.Entry<GroupKey, List<ReportFile>> g : byGroup.entrySet()) {
+                groups.add(toRunGroup(g.getKey(), g.getValue()));
+            }
+            groups.sort(Comparator.comparing(g -> nullToEmpty(g.latestTimestamp())));
+
+            ReportFile newest = runs.get(runs.size() - 1);
+            out.add(new BoardAggregate(
+                    e.getKey(),
+                    newest.submission().systemInfo(),
+                    newest.submission().timestamp(),
+                    runs.size(),
+                    groups
+            ));
+        }
+        return out;
+    }
+
+    private static GroupKey groupKey(BenchmarkSubmission s, Set<String> knownBenchmarks) {
+        Set<String> present = new HashSet<>();
+        for (BenchmarkResult r : resultsOf(s)) {
+            present.add(r.name());
+        }
+        List<String> skipped = knownBenchmarks.stream()
+                .filter(name -> !present.contains(name))
+                .toList();
+        return new GroupKey(jvmLabel(s), skipped);
+    }
 
-            BenchmarkSubmission existing = best.get(key);
-            if (existing == null) {
-                best.put(key, s);
+    private static RunGroup toRunGroup(GroupKey key, List<ReportFile> runs) {
+        // Per benchmark, all samples in chronological order
+        Map<String, List<BenchmarkResult>> samples = new LinkedHashMap<>();
+        for (ReportFile r : runs) {
+            for (BenchmarkResult result : resultsOf(r.submission())) {
+                samples.computeIfAbsent(result.name(), k -> new ArrayList<>()).add(result);
+            }
+        }
+
+        List<BenchmarkStats> stats = new ArrayList<>();
+        for (Map.Entry<String, List<BenchmarkResult>> e : samples.entrySet()) {
+            stats.add(toBenchmarkStats(e.getKey(), e.getValue()));
+        }
+
+        return new RunGroup(
+                runs.get(runs.size() - 1).submission().systemInfo(),
+                key.jvm(),
+                key.skippedBenchmarks(),
+                runs.size(),
+                runs.get(0).submission().timestamp(),
+                runs.get(runs.size() - 1).submission().timestamp(),
+                stats,
+                runs.stream().map(ReportFile::file).toList()
+        );
+    }
+
+    private static BenchmarkStats toBenchmarkStats(String name, List<BenchmarkResult> samples) {
+        // Failed samples are counted separately and never taken into the median
+        double[] valid = samples.stream()
+                .mapToDouble(BenchmarkResult::score)
+                .filter(score -> !isFailed(score))
+                .sorted()
+                .toArray();
+        int failures = samples.size() - valid.length;
+
+        BenchmarkResult latest = samples.get(samples.size() - 1);
+        String unit = latest.unit();
+        String description = samples.stream()
+                .filter(r -> !isFailed(r.score()))
+                .reduce((a, b) -> b)
+                .map(BenchmarkResult::description)
+                .orElse(latest.description());
+        String lastError = failures == 0 ? null : samples.stream()
+                .filter(r -> isFailed(r.score()))
+                .reduce((a, b) -> b)
+                .map(BenchmarkResult::description)
+                .orElse(null);
+
+        if (valid.length == 0) {
+            return new BenchmarkStats(name, unit, -1, -1, -1, 0, 0, failures, description, lastError);
+        }
+
+        double median = median(valid);
+        double min = valid[0];
+        double max = valid[valid.length - 1];
+        double spreadPercent = median > 0 ? (max - min) / median * 100.0 : 0;
+        return new BenchmarkStats(name, unit, median, min, max, spreadPercent, valid.length, failures,
+                description, lastError);
+    }
+
+    /**
+     * Converts an aggregate back into the submission format of summary.json. All results and the
+     * system information come from one group, so scores are never labeled with another JVM. That is
+     * the newest group with at least {@link #SUMMARY_MIN_RUNS} runs, or the newest group when none
+     * has that many. This way a single new run, e.g. on a new JVM build or with an extra skipped
+     * benchmark, does not replace a group with several runs, but an older group stops hiding a newer
+     * one as soon as the newer one has enough runs.
+     * <p>
+     * Benchmarks the chosen group never ran are taken from the group with the most valid samples
+     * for them (the newest wins a tie), and are marked with the JVM of that group.
+     */
+    private static BenchmarkSubmission toSummarySubmission(BoardAggregate board) {
+        // Groups are sorted from oldest to newest
+        List<RunGroup> groups = board.groups();
+        RunGroup chosen = groups.get(groups.size() - 1);
+        for (int i = groups.size() - 1; i >= 0; i--) {
+            if (groups.get(i).submissions() >= SUMMARY_MIN_RUNS) {
+                chosen = groups.get(i);
+                break;
+            }
+        }
+
+        List<BenchmarkResult> results = new ArrayList<>();
+        Set<String> ran = new HashSet<>();
+        for (BenchmarkStats stats : chosen.results()) {
+            results.add(toSummaryResult(stats, null));
+            ran.add(stats.name());
+        }
+
+        Map<String, BenchmarkStats> fill = new LinkedHashMap<>();
+        Map<String, RunGroup> fillGroup = new HashMap<>();
+        for (RunGroup group : groups) {
+            if (group == chosen) {
+                continue;
+            }
+            for (BenchmarkStats stats : group.results()) {
+                BenchmarkStats current = fill.get(stats.name());
+                // ">=" lets the newest group win a tie
+                if (!ran.contains(stats.name()) && (current == null || stats.samples() >= current.samples())) {
+                    fill.put(stats.name(), stats);
+                    fillGroup.put(stats.name(), group);
+                }
+            }
+        }
+        for (BenchmarkStats stats : fill.values()) {
+            results.add(toSummaryResult(stats, fillGroup.get(stats.name()).jvm()));
+        }
+
+        return new BenchmarkSubmission(chosen.systemInfo(), results, chosen.latestTimestamp());
+    }
+
+    private static BenchmarkResult toSummaryResult(BenchmarkStats stats, String filledFromJvm) {
+        return stats.samples() > 0
+                ? new BenchmarkResult(stats.name(), stats.median(), stats.unit(), stats.description(), filledFromJvm)
+                : new BenchmarkResult(stats.name(), -1, stats.unit(), stats.lastError(), filledFromJvm);
+    }
+
+    /**
+     * Ranks the boards on a composite index: the geometric mean of the scores normalized to the
+     * reference board, times 100. All scores are durations, so a board twice as fast as the
+     * reference on every benchmark gets 200.
+     * <p>
+     * Benchmarks which were skipped or failed on a board are left out of its index, and such a
+     * board is marked as incomplete. Only complete boards get a rank, because an index over
+     * fewer benchmarks is not directly comparable.
+     */
+    private static Rankings rank(List<BenchmarkSubmission> boards) throws IOException {
+        List<String> benchmarks = RANKED_BENCHMARKS;
+        List<String> unranked = unrankedBenchmarks();
+        BenchmarkSubmission reference = selectReference(boards, benchmarks);
+        if (reference == null) {
+            return new Rankings(null, benchmarks, unranked, List.of());
+        }
+
+        Map<String, Double> referenceScores = validScores(reference);
+        List<BoardRanking> rankings = new ArrayList<>();
+        for (BenchmarkSubmission board : boards) {
+            rankings.add(toBoardRanking(board, benchmarks, reference, referenceScores));
+        }
+
+        rankings.sort(Comparator
+                .comparing(BoardRanking::complete).reversed()
+                .thenComparing(BoardRanking::compositeIndex, Comparator.nullsLast(Comparator.reverseOrder())));
+        int rank = 1;
+        for (int i = 0; i < rankings.size(); i++) {
+            BoardRanking r = rankings.get(i);
+            if (r.complete() && r.compositeIndex() != null) {
+                rankings.set(i, r.withRank(rank++));
+            }
+        }
+
+        CpuInfo cpu = reference.systemInfo().cpuInfo();
+        return new Rankings(
+                new ReferenceBoard(cleanString(cpu.model()), referenceScores,
+                        missingBenchmarks(reference, benchmarks), failedBenchmarks(reference, benchmarks)),
+                benchmarks,
+                unranked,
+                rankings
+        );
+    }
+
+    /**
+     * The benchmarks in data/benchmarks.json which are not part of {@link #RANKED_BENCHMARKS}. These
+     * are only reported, so adding a benchmark to the runner does not make every existing board
+     * incomplete.
+     */
+    private static List<String> unrankedBenchmarks() throws IOException {
+        List<BenchmarkDefinition> definitions = readDataFile(Path.of("data", "benchmarks.json"), new TypeReference<>() {
+        });
+        Set<String> defined = new LinkedHashSet<>();
+        for (BenchmarkDefinition d : definitions) {
+            defined.add(d.name());
+        }
+
+        List<String> unranked = defined.stream()
+                .filter(name -> !RANKED_BENCHMARKS.contains(name))
+                .toList();
+        if (!unranked.isEmpty()) {
+            System.out.println("Not ranked (not in RANKED_BENCHMARKS): " + unranked);
+        }
+        if (!definitions.isEmpty() && !defined.containsAll(RANKED_BENCHMARKS)) {
+            System.err.println("WARNING: ranked benchmarks which are no longer in data/benchmarks.json: "
+                    + RANKED_BENCHMARKS.stream().filter(name -> !defined.contains(name)).toList());
+        }
+        return unranked;
+    }
+
+    /**
+     * Returns the configured reference board when it has a valid result for every benchmark,
+     * otherwise the first board that does. When no board is complete, the configured board (or the
+     * board with the most valid results) is still used for the indices, but no board gets a rank.
+     */
+    private static BenchmarkSubmission selectReference(List<BenchmarkSubmission> boards, List<String> benchmarks) {
+        if (boards.isEmpty()) {
+            return null;
+        }
+        BenchmarkSubmission configured = boards.stream()
+                .filter(b -> REFERENCE_CPU_MODEL.equals(cleanString(b.systemInfo().cpuInfo().model())))
+                .findFirst()
+                .orElse(null);
+        if (configured != null && isComplete(configured, benchmarks)) {
+            return configured;
+        }
+
+        String reason = configured == null
+                ? "not found"
+                : "incomplete (missing " + missingBenchmarks(configured, benchmarks)
+                + ", failed " + failedBenchmarks(configured, benchmarks) + ")";
+        Optional<BenchmarkSubmission> fallback = boards.stream()
+                .filter(b -> isComplete(b, benchmarks))
+                .findFirst();
+        if (fallback.isPresent()) {
+            System.err.println("WARNING: reference board " + REFERENCE_CPU_MODEL + " is " + reason
+                    + ", using " + cleanString(fallback.get().systemInfo().cpuInfo().model()) + " instead");
+            return fallback.get();
+        }
+
+        System.err.println("WARNING: reference board " + REFERENCE_CPU_MODEL + " is " + reason
+                + " and no other board has a valid result for every benchmark, no ranks are assigned");
+        return configured != null ? configured : boards.stream()
+                .max(Comparator.comparingInt(b -> validScores(b).size()))
+                .orElseThrow();
+    }
+
+    private static boolean isComplete(BenchmarkSubmission board, List<String> benchmarks) {
+        return validScores(board).keySet().containsAll(benchmarks);
+    }
+
+    private static List<String> missingBenchmarks(BenchmarkSubmission board, List<String> benchmarks) {
+        Set<String> executed = new HashSet<>();
+        for (BenchmarkResult r : resultsOf(board)) {
+            executed.add(r.name());
+        }
+        return benchmarks.stream()
+                .filter(name -> !executed.contains(name))
+                .toList();
+    }
+
+    private static List<String> failedBenchmarks(BenchmarkSubmission board, List<String> benchmarks) {
+        Set<String> failed = new HashSet<>();
+        for (BenchmarkResult r : resultsOf(board)) {
+            if (isFailed(r.score())) {
+                failed.add(r.name());
+            }
+        }
+        return benchmarks.stream()
+                .filter(failed::contains)
+                .toList();
+    }
+
+    private static BoardRanking toBoardRanking(BenchmarkSubmission board, List<String> benchmarks,
+                                               BenchmarkSubmission reference, Map<String, Double> referenceScores) {
+        Map<String, Double> scores = validScores(board);
+
+        // Only benchmarks with a valid result on both this board and the reference can be normalized,
+        // a board is complete when that is the case for every benchmark
+        Map<String, Double> normalized = new LinkedHashMap<>();
+        for (String name : benchmarks) {
+            Double score = scores.get(name);
+            Double referenceScore = referenceScores.get(name);
+            if (score != null && referenceScore != null) {
+                // A valid score of 0 is below the timer resolution, clamp it so the ratio stays finite
+                normalized.put(name, Math.max(referenceScore, MIN_SCORE) / Math.max(score, MIN_SCORE));
+            }
+        }
+
+        // The single/multi-thread indices only use pairs where both halves are available,
+        // so the ratio between them stays meaningful
+        List<Double> serial = new ArrayList<>();
+        List<Double> parallel = new ArrayList<>();
+        for (BenchmarkPair pair : SERIAL_PARALLEL_PAIRS) {
+            if (normalized.containsKey(pair.serial()) && normalized.containsKey(pair.parallel())) {
+                serial.add(normalized.get(pair.serial()));
+                parallel.add(normalized.get(pair.parallel()));
+            }
+        }
+
+        // Per core and per MHz, the index is relative to the reference as well, so the reference gets 100
+        CpuInfo cpu = board.systemInfo().cpuInfo();
+        CpuInfo referenceCpu = reference.systemInfo().cpuInfo();
+        BoardInfo boardInfo = board.systemInfo().boardInfo();
+        Double composite = index(normalized.values());
+        return new BoardRanking(
+                null,
+                boardInfo == null ? "" : cleanString(boardInfo.model()),
+                cleanString(cpu.model()),
+                cpu.logicalCores(),
+                cpu.maxFreqMhz(),
+                composite,
+                normalized.size() == benchmarks.size(),
+                List.copyOf(normalized.keySet()),
+                missingBenchmarks(board, benchmarks),
+                failedBenchmarks(board, benchmarks),
+                composite == null || cpu.logicalCores() <= 0 || referenceCpu.logicalCores() <= 0
+                        ? null : composite * referenceCpu.logicalCores() / cpu.logicalCores(),
+                composite == null || cpu.maxFreqMhz() <= 0 || referenceCpu.maxFreqMhz() <= 0
+                        ? null : composite * referenceCpu.maxFreqMhz() / cpu.maxFreqMhz(),
+                index(serial),
+                index(parallel),
+                normalized
+        );
+    }
+
+    private static Map<String, Double> validScores(BenchmarkSubmission s) {
+        Map<String, Double> out = new LinkedHashMap<>();
+        for (BenchmarkResult r : resultsOf(s)) {
+            if (!isFailed(r.score())) {
+                out.put(r.name(), r.score());
+            }
+        }
+        return out;
+    }
+
+    private static Double index(Collection<Double> normalized) {
+        if (normalized.isEmpty()) {
+            return null;
+        }
+        double logSum = 0;
+        for (double n : normalized) {
+            logSum += Math.log(n);
+        }
+        return 100.0 * Math.exp(logSum / normalized.size());
+    }
+
+    /**
+     * Builds a time series per board and benchmark over all submissions, regardless of the JVM
+     * build, to see when a new JDK or OS update changes the performance on the same hardware.
+     */
+    private static Trends trends(List<ReportFile> reports) {
+        List<BoardTrend> boards = new ArrayList<>();
+        for (Map.Entry<CpuKey, List<ReportFile>> e : groupByCpu(reports).entrySet()) {
+            Map<String, List<TrendPoint>> series = new LinkedHashMap<>();
+            Map<String, String> units = new HashMap<>();
+            for (ReportFile r : e.getValue()) {
+                for (BenchmarkResult result : resultsOf(r.submission())) {
+                    series.computeIfAbsent(result.name(), k -> new ArrayList<>()).add(new TrendPoint(
+                            r.submission().timestamp(),
+                            result.score(),
+                            jvmLabel(r.submission()),
+                            osLabel(r.submission()),
+                            r.file()
+                    ));
+                    units.put(result.name(), result.unit());
+                }
+            }
+
+            List<BenchmarkTrend> benchmarks = new ArrayList<>();
+            for (Map.Entry<String, List<TrendPoint>> s : series.entrySet()) {
+                benchmarks.add(new BenchmarkTrend(s.getKey(), units.get(s.getKey()), s.getValue(),
+                        detectChanges(s.getValue())));
+            }
+            boards.add(new BoardTrend(e.getKey(), e.getValue().size(), benchmarks));
+        }
+        return new Trends(TREND_ALPHA, TREND_MIN_RUNS, TREND_MIN_CHANGE_PERCENT, boards);
+    }
+
+    /**
+     * Tests every point in the series where the JVM build or OS version changes. Consecutive valid
+     * runs with the same JVM and OS form a segment, and each segment is compared with the next one
+     * using a two-sided Student t-test on the logarithm of the scores, so changes are relative.
+     * The p-values are Bonferroni-corrected for the number of tested updates. Failed runs (-1) are
+     * ignored. An update with fewer than {@link #TREND_MIN_RUNS} runs around it, or without any
+     * variation between the runs on the same side, is listed as untested.
+     */
+    private static List<ChangePoint> detectChanges(List<TrendPoint> points) {
+        List<List<TrendPoint>> segments = new ArrayList<>();
+        for (TrendPoint p : points) {
+            if (isFailed(p.score())) {
+                continue;
+            }
+            List<TrendPoint> last = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (last != null && last.get(0).jvm().equals(p.jvm()) && last.get(0).os().equals(p.os())) {
+                last.add(p);
             } else {
-                String tNew = nullToEmpty(s.timestamp());
-                String tOld = nullToEmpty(existing.timestamp());
-                if (tNew.compareTo(tOld) > 0) {
-                    best.put(key, s);
+                segments.add(new ArrayList<>(List.of(p)));
+            }
+        }
+
+        int tested = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (segments.get(i).size() + segments.get(i + 1).size() >= TREND_MIN_RUNS) {
+                tested++;
+            }
+        }
+
+        List<ChangePoint> changes = new ArrayList<>();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            List<TrendPoint> before = segments.get(i);
+            List<TrendPoint> after = segments.get(i + 1);
+            double[] logBefore = logScores(before);
+            double[] logAfter = logScores(after);
+            double meanBefore = Math.exp(mean(logBefore));
+            double meanAfter = Math.exp(mean(logAfter));
+            double changePercent = (meanAfter / meanBefore - 1.0) * 100.0;
+
+            Double pValue = null;
+            String direction = "untested";
+            double p = before.size() + after.size() >= TREND_MIN_RUNS ? tTestPValue(logBefore, logAfter) : Double.NaN;
+            if (!Double.isNaN(p)) {
+                pValue = Math.min(1.0, p * tested);
+                // Scores are durations, so a higher score after the update is a regression
+                direction = "none";
+                if (pValue < TREND_ALPHA && Math.abs(changePercent) >= TREND_MIN_CHANGE_PERCENT) {
+                    direction = changePercent > 0 ? "regression" : "improvement";
                 }
             }
+
+            changes.add(new ChangePoint(
+                    direction,
+                    after.get(0).timestamp(),
+                    before.size(),
+                    after.size(),
+                    meanBefore,
+                    meanAfter,
+                    changePercent,
+                    pValue,
+                    before.get(0).jvm(),
+                    after.get(0).jvm(),
+                    before.get(0).os(),
+                    after.get(0).os()
+            ));
         }
+        return changes;
+    }
+
+    private static double[] logScores(List<TrendPoint> points) {
+        return points.stream()
+                .mapToDouble(p -> Math.log(Math.max(p.score(), MIN_SCORE)))
+                .toArray();
+    }
 
-        return new ArrayList<>(best.values());
+    private static double mean(double[] values) {
+        return Arrays.stream(values).average().orElse(0);
+    }
+
+    /**
+     * Two-sided p-value of the Student t-test with pooled variance. The variance may come from one
+     * side only, so a single run after an update can be tested against several runs before it.
+     * Returns NaN when the pooled variance is 0.
+     */
+    private static double tTestPValue(double[] a, double[] b) {
+        double meanA = mean(a);
+        double meanB = mean(b);
+        double sumOfSquares = 0;
+        for (double x : a) {
+            sumOfSquares += (x - meanA) * (x - meanA);
+        }
+        for (double x : b) {
+            sumOfSquares += (x - meanB) * (x - meanB);
+        }
+
+        int degreesOfFreedom = a.length + b.length - 2;
+        double pooledVariance = sumOfSquares / degreesOfFreedom;
+        if (pooledVariance == 0) {
+            // Identical scores give no estimate of the run-to-run variation, so nothing can be concluded
+            return Double.NaN;
+        }
+        double t = (meanB - meanA) / Math.sqrt(pooledVariance * (1.0 / a.length + 1.0 / b.length));
+        // P(|T| > t) for the Student t-distribution
+        return regularizedBeta(degreesOfFreedom / (degreesOfFreedom + t * t), degreesOfFreedom / 2.0, 0.5);
+    }
+
+    /**
+     * Regularized incomplete beta function I_x(a, b), evaluated with a continued fraction
+     * (Numerical Recipes, 6.4).
+     */
+    private static double regularizedBeta(double x, double a, double b) {
+        if (x <= 0) {
+            return 0;
+        }
+        if (x >= 1) {
+            return 1;
+        }
+        double front = Math.exp(logGamma(a + b) - logGamma(a) - logGamma(b)
+                + a * Math.log(x) + b * Math.log(1 - x));
+        if (x < (a + 1) / (a + b + 2)) {
+            return front * betaContinuedFraction(x, a, b) / a;
+        }
+        return 1 - front * betaContinuedFraction(1 - x, b, a) / b;
+    }
+
+    private static double betaContinuedFraction(double x, double a, double b) {
+        double tiny = 1e-300;
+        double c = 1;
+        double d = 1 - (a + b) * x / (a + 1);
+        d = 1 / (Math.abs(d) < tiny ? tiny : d);
+        double h = d;
+        for (int m = 1; m <= 300; m++) {
+            int m2 = 2 * m;
+            // Even step
+            double aa = m * (b - m) * x / ((a - 1 + m2) * (a + m2));
+            d = 1 + aa * d;
+            d = 1 / (Math.abs(d) < tiny ? tiny : d);
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            h *= d * c;
+            // Odd step
+            aa = -(a + m) * (a + b + m) * x / ((a + m2) * (a + 1 + m2));
+            d = 1 + aa * d;
+            d = 1 / (Math.abs(d) < tiny ? tiny : d);
+            c = 1 + aa / c;
+            c = Math.abs(c) < tiny ? tiny : c;
+            double delta = d * c;
+            h *= delta;
+            if (Math.abs(delta - 1) < 1e-12) {
+                break;
+            }
+        }
+        return h;
+    }
+
+    private static double logGamma(double x) {
+        // Lanczos approximation
+        double[] coefficients = {76.18009172947146, -86.50532032941677, 24.01409824083091,
+                -1.231739572450155, 0.1208650973866179e-2, -0.5395239384953e-5};
+        double y = x;
+        double tmp = x + 5.5;
+        tmp -= (x + 0.5) * Math.log(tmp);
+        double series = 1.000000000190015;
+        for (double coefficient : coefficients) {
+            series += coefficient / ++y;
+        }
+        return -tmp + Math.log(2.5066282746310005 * series / x);
+    }
+
+    /**
+     * Builds the compact dataset for the dashboard, with one column per field and one row per
+     * board. The brand, processor and note filters are evaluated here, so the dashboard only
+     * needs to look up the resolved IDs (the index in the brands, processors and notes lists).
+     */
+    private static DashboardData buildDashboard(List<BenchmarkSubmission> boards) throws IOException {
+        List<Identifier> brands = readDataFile(Path.of("data", "brand_identifiers.json"), new TypeReference<>() {
+        });
+        List<Identifier> processors = readDataFile(Path.of("data", "processor_identifiers.json"), new TypeReference<>() {
+        });
+        List<Note> notes = readDataFile(Path.of("data", "notes.json"), new TypeReference<>() {
+        });
+
+        MatcherIndex brandIndex = MatcherIndex.compile(brands.stream().map(Identifier::filters).toList());
+        MatcherIndex processorIndex = MatcherIndex.compile(processors.stream().map(Identifier::filters).toList());
+        MatcherIndex noteIndex = MatcherIndex.compile(notes.stream().map(Note::filters).toList());
+
+        Set<String> benchmarks = new LinkedHashSet<>();
+        for (BenchmarkSubmission b : boards) {
+            for (BenchmarkResult r : resultsOf(b)) {
+                benchmarks.add(r.name());
+            }
+        }
+
+        BoardColumns columns = new BoardColumns(boards.size());
+        Map<String, List<Double>> scores = new LinkedHashMap<>();
+        for (String name : benchmarks) {
+            scores.put(name, new ArrayList<>());
+        }
+
+        for (BenchmarkSubmission b : boards) {
+            SystemInformation info = b.systemInfo();
+            JsonNode tree = MAPPER.valueToTree(b);
+            List<Integer> brandIds = brandIndex.match(tree);
+            List<Integer> processorIds = processorIndex.match(tree);
+
+            columns.boardModel().add(info.boardInfo() == null ? null : cleanString(info.boardInfo().model()));
+            columns.cpuModel().add(cleanString(info.cpuInfo().model()));
+            columns.architecture().add(info.cpuInfo().architecture());
+            columns.logicalCores().add(info.cpuInfo().logicalCores());
+            columns.maxFreqMhz().add(info.cpuInfo().maxFreqMhz());
+            columns.memoryMB().add(info.memoryInfo() == null ? null : info.memoryInfo().totalMB());
+            columns.jvm().add(jvmLabel(b));
+            columns.os().add(osLabel(b));
+            columns.timestamp().add(b.timestamp());
+            // When several brands or processors match, the first one in the data file wins
+            columns.brand().add(brandIds.isEmpty() ? null : brandIds.get(0));
+            columns.processor().add(processorIds.isEmpty() ? null : processorIds.get(0));
+            columns.notes().add(noteIndex.match(tree));
+
+            // null when the benchmark was not executed, -1 when it failed
+            Map<String, Double> boardScores = new HashMap<>();
+            for (BenchmarkResult r : resultsOf(b)) {
+                boardScores.put(r.name(), r.score());
+            }
+            for (String name : benchmarks) {
+                scores.get(name).add(boardScores.get(name));
+            }
+        }
+
+        return new DashboardData(
+                brands.stream().map(Identifier::toLabel).toList(),
+                processors.stream().map(Identifier::toLabel).toList(),
+                notes.stream().map(Note::note).toList(),
+                List.copyOf(benchmarks),
+                columns,
+                scores
+        );
+    }
+
+    private static <T> List<T> readDataFile(Path file, TypeReference<List<T>> type) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            System.err.println("Data file not found: " + file);
+            return List.of();
+        }
+        return MAPPER.readValue(Files.readString(file), type);
+    }
+
+    private static List<BenchmarkResult> resultsOf(BenchmarkSubmission s) {
+        return s == null || s.results() == null ? List.of() : s.results();
+    }
+
+    /**
+     * A negative score (-1) is how the runner reports a failed or timed out benchmark.
+     */
+    private static boolean isFailed(double score) {
+        return score < 0;
+    }
+
+    private static String jvmLabel(BenchmarkSubmission s) {
+        JvmInfo jvm = Optional.ofNullable(s.systemInfo())
+                .map(SystemInformation::jvmInfo)
+                .orElse(null);
+        if (jvm == null) {
+            return "";
+        }
+        // Not every distribution fills in a vendor version, fall back to the runtime version
+        return cleanString(jvm.vendorVersion() != null ? jvm.vendorVersion() : jvm.runtimeVersion());
+    }
+
+    private static String osLabel(BenchmarkSubmission s) {
+        OsInfo os = Optional.ofNullable(s.systemInfo())
+                .map(SystemInformation::osInfo)
+                .orElse(null);
+        if (os == null) {
+            return "";
+        }
+        return (cleanString(os.family()) + " " + cleanString(os.version())).trim();
+    }
+
+    private static double median(double[] sorted) {
+        int mid = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[mid] : (sorted[mid - 1] + sorted[mid]) / 2.0;
     }
 
     private static void writeSummary(Path summaryFile, List<BenchmarkSubmission> unique) throws IOException {
-        Files.writeString(summaryFile, MAPPER.writeValueAsString(unique),
+        writeJson(summaryFile, unique);
+    }
+
+    private static void writeJson(Path file, Object value) throws IOException {
+        Files.writeString(file, MAPPER.writeValueAsString(value),
                 StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
     }
 
+    /**
+     * Writes the dashboard data minified, and next to it a gzip-precompressed copy (.gz) that can
+     * be served as-is with "Content-Encoding: gzip".
+     */
+    private static void writeDashboard(Path file, DashboardData data) throws IOException {
+        byte[] json = MAPPER.writer().without(SerializationFeature.INDENT_OUTPUT).writeValueAsBytes(data);
+        Files.write(file, json, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+        Path gzFile = file.resolveSibling(file.getFileName() + ".gz");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(gzFile,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            out.write(json);
+        }
+    }
+
     private static String nullToEmpty(String s) {
         return s == null ? "" : s;
     }
@@ -120,6 +878,186 @@ public class SummarizeReports {
     record CpuKey(String model, int logicalCores, int physicalCores) {
     }
 
+    record ReportFile(String file, BenchmarkSubmission submission) {
+    }
+
+    // Within one CPU, runs are only merged when they share the JVM build and the skipped benchmarks
+    record GroupKey(String jvm, List<String> skippedBenchmarks) {
+    }
+
+    // Aggregated data classes (data/aggregated.json)
+    record BoardAggregate(CpuKey cpu, SystemInformation systemInfo, String latestTimestamp,
+                          int submissions, List<RunGroup> groups) {
+    }
+
+    // The system information of the newest run is only used for summary.json
+    record RunGroup(@JsonIgnore SystemInformation systemInfo, String jvm,
+                    List<String> skippedBenchmarks, int submissions,
+                    String firstTimestamp, String latestTimestamp,
+                    List<BenchmarkStats> results, List<String> reports) {
+    }
+
+    record BenchmarkStats(String name, String unit, double median, double min, double max,
+                          double spreadPercent, int samples, int failures,
+                          String description, String lastError) {
+    }
+
+    // Ranking data classes (data/rankings.json)
+    record BenchmarkPair(String serial, String parallel) {
+    }
+
+    record Rankings(ReferenceBoard reference, List<String> benchmarks, List<String> unrankedBenchmarks,
+                    List<BoardRanking> boards) {
+    }
+
+    record ReferenceBoard(String cpuModel, Map<String, Double> scores,
+                          List<String> missingBenchmarks, List<String> failedBenchmarks) {
+    }
+
+    record BoardRanking(Integer rank, String boardModel, String cpuModel, int logicalCores, long maxFreqMhz,
+                        Double compositeIndex, boolean complete, List<String> includedBenchmarks,
+                        List<String> missingBenchmarks, List<String> failedBenchmarks,
+                        Double indexPerCore, Double indexPerMhz,
+                        Double singleThreadIndex, Double multiThreadIndex,
+                        Map<String, Double> normalizedScores) {
+
+        BoardRanking withRank(int rank) {
+            return new BoardRanking(rank, boardModel, cpuModel, logicalCores, maxFreqMhz, compositeIndex,
+                    complete, includedBenchmarks, missingBenchmarks, failedBenchmarks, indexPerCore,
+                    indexPerMhz, singleThreadIndex, multiThreadIndex, normalizedScores);
+        }
+    }
+
+    // Trend data classes (data/trends.json)
+    record Trends(double alpha, int minRuns, double minChangePercent, List<BoardTrend> boards) {
+    }
+
+    record BoardTrend(CpuKey cpu, int submissions, List<BenchmarkTrend> benchmarks) {
+    }
+
+    record BenchmarkTrend(String name, String unit, List<TrendPoint> points, List<ChangePoint> changes) {
+    }
+
+    record TrendPoint(String timestamp, double score, String jvm, String os, String report) {
+    }
+
+    // One JVM or OS update in a series, the means are geometric means of the valid runs on each side
+    record ChangePoint(String direction, String timestamp, int runsBefore, int runsAfter,
+                       double meanBefore, double meanAfter, double changePercent, Double pValue,
+                       String jvmBefore, String jvmAfter, String osBefore, String osAfter) {
+    }
+
+    // Dashboard data classes (data/dashboard.min.json)
+    record DashboardData(List<Label> brands, List<Label> processors, List<String> notes,
+                         List<String> benchmarks, BoardColumns boards, Map<String, List<Double>> scores) {
+    }
+
+    record BoardColumns(List<String> boardModel, List<String> cpuModel, List<String> architecture,
+                        List<Integer> logicalCores, List<Long> maxFreqMhz, List<Long> memoryMB,
+                        List<String> jvm, List<String> os, List<String> timestamp,
+                        List<Integer> brand, List<Integer> processor, List<List<Integer>> notes) {
+
+        BoardColumns(int size) {
+            this(new ArrayList<>(size), new ArrayList<>(size), new ArrayList<>(size),
+                    new ArrayList<>(size), new ArrayList<>(size), new ArrayList<>(size),
+                    new ArrayList<>(size), new ArrayList<>(size), new ArrayList<>(size),
+                    new ArrayList<>(size), new ArrayList<>(size), new ArrayList<>(size));
+        }
+    }
+
+    record Label(String identifier, String website, String logo, String color) {
+    }
+
+    // Input data classes (benchmarks.json, brand_identifiers.json, processor_identifiers.json and notes.json)
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record BenchmarkDefinition(String name, String description) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Identifier(String identifier, String website, String logo, String color, List<DataFilter> filters) {
+
+        Label toLabel() {
+            return new Label(identifier, website, logo, color);
+        }
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Note(String note, List<DataFilter> filters) {
+    }
+
+    // Matches when the value at the "data" path contains any of the "contains" values, ignoring case
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record DataFilter(String data, List<String> contains) {
+    }
+
+    /**
+     * All filters of a data file compiled into one lookup: per distinct data path the lowercase
+     * needles with the ID of the entry they belong to. Each path is resolved only once per board.
+     */
+    record MatcherIndex(Map<String, List<Needle>> needlesByPath) {
+
+        record Needle(String text, int id) {
+        }
+
+        static MatcherIndex compile(List<List<DataFilter>> filtersPerEntry) {
+            Map<String, List<Needle>> byPath = new LinkedHashMap<>();
+            for (int id = 0; id < filtersPerEntry.size(); id++) {
+                List<DataFilter> filters = filtersPerEntry.get(id);
+                if (filters == null) {
+                    continue;
+                }
+                for (DataFilter f : filters) {
+                    if (f.data() == null || f.contains() == null) {
+                        continue;
+                    }
+                    List<Needle> needles = byPath.computeIfAbsent(f.data().toLowerCase(Locale.ROOT), k -> new ArrayList<>());
+                    for (String c : f.contains()) {
+                        needles.add(new Needle(c.toLowerCase(Locale.ROOT), id));
+                    }
+                }
+            }
+            return new MatcherIndex(byPath);
+        }
+
+        /**
+         * Returns the sorted IDs of all entries with at least one matching filter.
+         */
+        List<Integer> match(JsonNode board) {
+            Set<Integer> ids = new TreeSet<>();
+            for (Map.Entry<String, List<Needle>> e : needlesByPath.entrySet()) {
+                String value = resolve(board, e.getKey());
+                if (value == null) {
+                    continue;
+                }
+                for (Needle n : e.getValue()) {
+                    if (value.contains(n.text())) {
+                        ids.add(n.id());
+                    }
+                }
+            }
+            return List.copyOf(ids);
+        }
+
+        // Path segments are matched ignoring case, as the data files are hand-written
+        private static String resolve(JsonNode node, String path) {
+            for (String segment : path.split("\\.")) {
+                if (node == null || !node.isObject()) {
+                    return null;
+                }
+                JsonNode next = null;
+                for (Iterator<Map.Entry<String, JsonNode>> it = node.fields(); it.hasNext(); ) {
+                    Map.Entry<String, JsonNode> field = it.next();
+                    if (field.getKey().equalsIgnoreCase(segment)) {
+                        next = field.getValue();
+                        break;
+                    }
+                }
+                node = next;
+            }
+            return node == null || node.isNull() ? null : node.asText().toLowerCase(Locale.ROOT);
+        }
+    }
+
     // Data classes
     record SystemInformation(BoardInfo boardInfo, CpuInfo cpuInfo, MemoryInfo memoryInfo,
                              JvmInfo jvmInfo, OsInfo osInfo) {
@@ -142,7 +1080,9 @@ public class SummarizeReports {
     record OsInfo(String family, String version, int bitness) {
     }
 
-    record BenchmarkResult(String name, double score, String unit, String description) {
+    // filledFromJvm is only set in summary.json, for a benchmark taken from another group than the system information
+    record BenchmarkResult(String name, double score, String unit, String description,
+                           @JsonInclude(JsonInclude.Include.NON_NULL) String filledFromJvm) {
     }
 
     record BenchmarkSubmission(SystemInformation systemInfo, List<BenchmarkResult> results,